@@ -0,0 +1,361 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A sorted set of strings that spills to disk.
+ * <p>
+ * Strings are buffered in memory until they pass a size limit, then written out as a sorted run to a temporary
+ * file. Iterating merges the runs and the buffer, returning each distinct string once in natural order, the same
+ * order as a {@link TreeSet}. At most {@code maxFanIn} runs are open at once, when there are more they are first
+ * merged into larger runs in groups of that size. Close it to delete the run files.
+ * </p>
+ */
+final class ExternalSortedStrings implements Iterable<String>, Closeable {
+
+    /**
+     * Default number of buffered characters before a run is spilled, about 32 MiB of heap.
+     */
+    static final long DEFAULT_MAX_BUFFERED_CHARS = 16L * 1024 * 1024;
+
+    /**
+     * Default number of runs merged at once.
+     */
+    static final int DEFAULT_MAX_FAN_IN = 64;
+
+    /**
+     * Number of buffered characters before a run is spilled.
+     */
+    private final long maxBufferedChars;
+
+    /**
+     * Directory for the run files, or null for the default temporary directory.
+     */
+    private final Path spillDirectory;
+
+    /**
+     * Number of runs merged at once.
+     */
+    private final int maxFanIn;
+
+    /**
+     * Strings not yet spilled.
+     */
+    private final Set<String> buffer = new TreeSet<>();
+
+    /**
+     * Characters in the buffer.
+     */
+    private long bufferedChars = 0;
+
+    /**
+     * The spilled runs.
+     */
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * The open run readers.
+     */
+    private final List<DataInputStream> readers = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param maxBufferedChars Number of buffered characters before a run is spilled.
+     * @param spillDirectory Directory for the run files, or null for the default temporary directory.
+     */
+    ExternalSortedStrings(final long maxBufferedChars, final Path spillDirectory) {
+        this(maxBufferedChars, spillDirectory, DEFAULT_MAX_FAN_IN);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxBufferedChars Number of buffered characters before a run is spilled.
+     * @param spillDirectory Directory for the run files, or null for the default temporary directory.
+     * @param maxFanIn Number of runs merged at once, at least 2.
+     */
+    ExternalSortedStrings(final long maxBufferedChars, final Path spillDirectory, final int maxFanIn) {
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("maxFanIn must be at least 2");
+        }
+        this.maxBufferedChars = maxBufferedChars;
+        this.spillDirectory = spillDirectory;
+        this.maxFanIn = maxFanIn;
+    }
+
+    /**
+     * Add a string.
+     *
+     * @param value The string.
+     */
+    void add(final String value) {
+        if (buffer.add(value)) {
+            bufferedChars += value.length();
+            if (bufferedChars >= maxBufferedChars) {
+                runs.add(writeRun(buffer.iterator()));
+                buffer.clear();
+                bufferedChars = 0;
+            }
+        }
+    }
+
+    /**
+     * @return The number of runs on disk.
+     */
+    int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Write sorted strings out as a run of length prefixed UTF-8 strings.
+     *
+     * @param sorted The strings in sorted order.
+     * @return The run file.
+     */
+    private Path writeRun(final Iterator<String> sorted) {
+        try {
+            final Path run = spillDirectory == null ? Files.createTempFile("rdf-hashing-", ".run") :
+                    Files.createTempFile(spillDirectory, "rdf-hashing-", ".run");
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(run)))) {
+                while (sorted.hasNext()) {
+                    final byte[] bytes = sorted.next().getBytes(UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            return run;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Merge the spilled runs and the buffer. Only iterate once.
+     *
+     * @return The distinct strings in sorted order.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        if (runs.isEmpty()) {
+            return buffer.iterator();
+        }
+        while (runs.size() > maxFanIn) {
+            mergePass();
+        }
+        final List<Iterator<String>> sources = new ArrayList<>();
+        for (final Path run : runs) {
+            sources.add(openRun(run));
+        }
+        sources.add(buffer.iterator());
+        return merge(sources);
+    }
+
+    /**
+     * Merge the runs in groups of maxFanIn into new runs, deleting the merged ones.
+     */
+    private void mergePass() {
+        final List<Path> merged = new ArrayList<>();
+        for (int start = 0; start < runs.size(); start += maxFanIn) {
+            final List<Path> group = runs.subList(start, Math.min(start + maxFanIn, runs.size()));
+            final List<Iterator<String>> sources = new ArrayList<>();
+            for (final Path run : group) {
+                sources.add(openRun(run));
+            }
+            merged.add(writeRun(merge(sources)));
+            try {
+                for (final DataInputStream in : readers) {
+                    in.close();
+                }
+                readers.clear();
+                for (final Path run : group) {
+                    Files.delete(run);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        runs.clear();
+        runs.addAll(merged);
+    }
+
+    /**
+     * Open a run for reading.
+     *
+     * @param run The run file.
+     * @return The strings of the run in order.
+     */
+    private Iterator<String> openRun(final Path run) {
+        final DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        readers.add(in);
+        return new Iterator<String>() {
+
+            private String next = read(in);
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                final String current = next;
+                next = read(in);
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Merge sorted sources, dropping duplicates.
+     *
+     * @param sources The sorted sources.
+     * @return The distinct strings in sorted order.
+     */
+    private static Iterator<String> merge(final List<Iterator<String>> sources) {
+        final PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        for (final Iterator<String> source : sources) {
+            final Cursor cursor = new Cursor(source);
+            if (cursor.current != null) {
+                queue.add(cursor);
+            }
+        }
+        return new Iterator<String>() {
+
+            private String last = null;
+
+            @Override
+            public boolean hasNext() {
+                while (!queue.isEmpty() && queue.peek().current.equals(last)) {
+                    advance(queue.poll());
+                }
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Cursor cursor = queue.poll();
+                last = cursor.current;
+                advance(cursor);
+                return last;
+            }
+
+            private void advance(final Cursor cursor) {
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        };
+    }
+
+    /**
+     * Read the next string of a run.
+     *
+     * @param in The run.
+     * @return The string or null at the end of the run.
+     */
+    private static String read(final DataInputStream in) {
+        try {
+            final int length;
+            try {
+                length = in.readInt();
+            } catch (final EOFException e) {
+                return null;
+            }
+            final byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the run readers and delete the run files.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (final DataInputStream in : readers) {
+            try {
+                in.close();
+            } catch (final IOException e) {
+                error = e;
+            }
+        }
+        for (final Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (final IOException e) {
+                error = e;
+            }
+        }
+        readers.clear();
+        runs.clear();
+        buffer.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * The current string of one sorted source in the merge.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final Iterator<String> source;
+
+        private String current;
+
+        Cursor(final Iterator<String> source) {
+            this.source = source;
+            advance();
+        }
+
+        /**
+         * Move to the next string.
+         *
+         * @return Whether there was one.
+         */
+        boolean advance() {
+            current = source.hasNext() ? source.next() : null;
+            return current != null;
+        }
+
+        @Override
+        public int compareTo(final Cursor other) {
+            return current.compareTo(other.current);
+        }
+    }
+
+}
@@ -3,6 +3,9 @@ package ca.umanitoba.dam.rdfhashing;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 
 import org.apache.commons.cli.CommandLine;
@@ -130,6 +133,9 @@ public class HashCli {
         options.addOption(new Option("u", "username", true, "Username for http source (if required)"));
         options.addOption(new Option("p", "password", true, "Password for http source (if required)"));
         options.addOption(new Option("d", "debug", false, "Print the graph string before the hash"));
+        options.addOption(new Option("t", "tdb", false, "Source is a TDB2 database directory"));
+        options.addOption(new Option(null, "spill-dir", true,
+                "Directory for temporary sort files with --tdb (default java.io.tmpdir)"));
 
         final CommandLineParser parser = new DefaultParser();
         final CommandLine cmd;
@@ -140,6 +146,31 @@ public class HashCli {
             return;
         }
         final String source = cmd.getOptionValue("source");
+        if (cmd.hasOption("spill-dir") && !cmd.hasOption("tdb")) {
+            printHelpAndExit("--spill-dir can only be used with --tdb", options);
+            return;
+        }
+        if (cmd.hasOption("tdb")) {
+            if (cmd.hasOption("username") || cmd.hasOption("password")) {
+                printHelpAndExit("--username and --password can not be used with --tdb", options);
+                return;
+            }
+            if (!TdbRdfHash.isDatabase(source)) {
+                System.err.println("Source is not a TDB2 database");
+                return;
+            }
+            final Path spillDirectory = cmd.hasOption("spill-dir") ?
+                    Paths.get(cmd.getOptionValue("spill-dir")) : null;
+            if (spillDirectory != null && !Files.isDirectory(spillDirectory)) {
+                System.err.println("Spill directory does not exist");
+                return;
+            }
+            if (cmd.hasOption("debug")) {
+                System.out.println(TdbRdfHash.getGraphString(source));
+            }
+            System.out.print(TdbRdfHash.calculate(source, spillDirectory));
+            return;
+        }
         final Model graph;
         if (source.startsWith("http")) {
             // A URL
@@ -0,0 +1,31 @@
+package ca.umanitoba.dam.rdfhashing;
+
+/**
+ * Lowercase hexadecimal encoding of digest bytes.
+ */
+final class Hex {
+
+    /**
+     * Hexadecimal digits.
+     */
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private Hex() {
+    }
+
+    /**
+     * Encode bytes as a lowercase hexadecimal string.
+     *
+     * @param bytes The bytes.
+     * @return Two hexadecimal digits per byte.
+     */
+    static String encode(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+}
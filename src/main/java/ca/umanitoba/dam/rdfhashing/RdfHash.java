@@ -2,7 +2,6 @@ package ca.umanitoba.dam.rdfhashing;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -54,15 +53,6 @@ public class RdfHash {
      */
     private static final String BLANK_NODE = "*";
 
-    /**
-     * The currently visited nodes for any resource.
-     */
-    private static final Set<String> visitedNodes;
-
-    static {
-        visitedNodes = new TreeSet<>();
-    }
-
     /**
      * Calculate the SHA256 Hash of a graph.
      *
@@ -71,10 +61,7 @@ public class RdfHash {
      * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
      */
     public static String calculate(final Model graph) throws NoSuchAlgorithmException {
-        final MessageDigest md = MessageDigest.getInstance("SHA-256");
-        md.update(getGraphString(graph).getBytes(UTF_8));
-        return String.format("%064x", new BigInteger(1, md.digest()));
-
+        return digest(encodeSubjects(graph));
     }
 
     /**
@@ -84,17 +71,32 @@ public class RdfHash {
      * @return The algorithm string.
      */
     public static String getGraphString(final Model graph) {
+        return joinSubjects(encodeSubjects(graph));
+    }
+
+    /**
+     * Encode every subject of the graph.
+     *
+     * @param graph The graph.
+     * @return The sorted set of encoded subjects.
+     */
+    private static Set<String> encodeSubjects(final Model graph) {
         final Set<String> subjectSet = new TreeSet<>();
         final List<Resource> subjects = graph.listSubjects().toList();
 
         for (final Resource resource : subjects) {
-            visitedNodes.clear();
-            final String encoded = encodeSubject(resource, graph);
-            subjectSet.add(encoded);
+            subjectSet.add(encodeSubject(resource, graph));
         }
+        return subjectSet;
+    }
 
-        final List<String> sortedSubjects = subjectSet.stream().sorted().collect(Collectors.toList());
-
+    /**
+     * Wrap the sorted encoded subjects in subject blocks and join them.
+     *
+     * @param sortedSubjects The distinct encoded subjects in sorted order.
+     * @return The algorithm string.
+     */
+    static String joinSubjects(final Iterable<String> sortedSubjects) {
         final List<String> result = new ArrayList<>();
         for (final String s : sortedSubjects) {
             result.add(SUBJECT_START + s + SUBJECT_END);
@@ -102,14 +104,42 @@ public class RdfHash {
         return String.join("", result);
     }
 
+    /**
+     * Calculate the SHA256 Hash of the sorted encoded subjects, feeding each subject block to the digest in turn
+     * rather than building the whole algorithm string first.
+     *
+     * @param sortedSubjects The distinct encoded subjects in sorted order.
+     * @return The sha256 hexidecimal hash value.
+     * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
+     */
+    static String digest(final Iterable<String> sortedSubjects) throws NoSuchAlgorithmException {
+        final MessageDigest md = MessageDigest.getInstance("SHA-256");
+        for (final String s : sortedSubjects) {
+            md.update((SUBJECT_START + s + SUBJECT_END).getBytes(UTF_8));
+        }
+        return Hex.encode(md.digest());
+    }
+
+    /**
+     * Encode a top level subject from the graph to a string, starting with no visited blank nodes.
+     *
+     * @param resource The subject resource.
+     * @param graph The original graph.
+     * @return The subject encoded as a string.
+     */
+    static String encodeSubject(final Resource resource, final Model graph) {
+        return encodeNode(resource, graph, new TreeSet<>());
+    }
+
     /**
      * Encode a subject from the graph to a string.
      *
      * @param resource The subject resource.
      * @param graph The original graph.
+     * @param visitedNodes The blank nodes already visited under the current top level subject.
      * @return The subject encoded as a string.
      */
-    private static String encodeSubject(final Resource resource, final Model graph) {
+    private static String encodeNode(final Resource resource, final Model graph, final Set<String> visitedNodes) {
         final String subjectResult;
         if (resource.isAnon()) {
             if (visitedNodes.contains(resource.getId().toString())) {
@@ -122,7 +152,7 @@ public class RdfHash {
             subjectResult = resource.getURI();
         }
 
-        final String encodeProps = encodeProperties(resource, graph);
+        final String encodeProps = encodeProperties(resource, graph, visitedNodes);
         return subjectResult + encodeProps;
     }
 
@@ -131,9 +161,11 @@ public class RdfHash {
      *
      * @param resource The subject resource.
      * @param graph The original graph
+     * @param visitedNodes The blank nodes already visited under the current top level subject.
      * @return The properties encoded as a string.
      */
-    private static String encodeProperties(final Resource resource, final Model graph) {
+    private static String encodeProperties(final Resource resource, final Model graph,
+            final Set<String> visitedNodes) {
 
         final Set<Statement> all_properties = resource.listProperties().toSet();
         final List<Property> sorted_properties = all_properties.stream().map(Statement::getPredicate).distinct()
@@ -147,7 +179,7 @@ public class RdfHash {
             result.append(PROPERTY_START).append(property.getURI());
             final List<Statement> objectNodes = resource.listProperties(property).toList();
             for (final Statement object : objectNodes) {
-                objectStrings.add(encodeObject(object.getObject(), graph));
+                objectStrings.add(encodeObject(object.getObject(), graph, visitedNodes));
             }
             final List<String> sortedObjects = objectStrings.stream().sorted().collect(Collectors.toList());
             for (final String object_string : sortedObjects) {
@@ -163,9 +195,10 @@ public class RdfHash {
      *
      * @param object The object to encode.
      * @param graph The original graph.
+     * @param visitedNodes The blank nodes already visited under the current top level subject.
      * @return The object encoded as a string.
      */
-    private static String encodeObject(final RDFNode object, final Model graph) {
+    private static String encodeObject(final RDFNode object, final Model graph, final Set<String> visitedNodes) {
         if (object.isLiteral()) {
             final String objLang = object.asLiteral().getLanguage();
             if (!objLang.isEmpty()) {
@@ -175,7 +208,7 @@ public class RdfHash {
             }
         } else if (object.isResource()) {
             if (object.isAnon()) {
-                return encodeSubject(object.asResource(), graph);
+                return encodeNode(object.asResource(), graph, visitedNodes);
             } else {
                 return object.asResource().getURI();
             }
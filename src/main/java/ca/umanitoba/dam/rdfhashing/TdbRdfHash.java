@@ -0,0 +1,191 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+
+/**
+ * Hash the default graph of a TDB2 database without loading its triples into memory.
+ * <p>
+ * The triples are walked in SPO index order inside a read transaction, so each subject is seen as one contiguous
+ * run and only that subject's neighbourhood is looked up at a time. The encoded subjects are sorted with an
+ * {@link ExternalSortedStrings}, which spills sorted runs to files in the spill directory and merges them into the
+ * digest. The spill directory defaults to {@code java.io.tmpdir}, pass one on real disk if that is memory backed.
+ * </p>
+ * <p>
+ * The {@link DatasetGraph} methods only run a read transaction on a dataset the caller already has open. The
+ * location methods connect through {@link DatabaseMgr}, which shares one cached connection per location in the JVM
+ * and keeps it open until the JVM exits. TDB2 has no read-only mode, connecting rewrites the {@code tdb.lock} files
+ * with the process id, opens the data files for writing and replays any pending journal entries. The hash itself only
+ * reads.
+ * </p>
+ */
+public class TdbRdfHash {
+
+    /**
+     * Calculate the SHA256 Hash of the default graph of an open dataset.
+     *
+     * @param dataset The dataset, normally a TDB2 one.
+     * @return The sha256 hexidecimal hash value.
+     * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
+     */
+    public static String calculate(final DatasetGraph dataset) throws NoSuchAlgorithmException {
+        return calculate(dataset, null);
+    }
+
+    /**
+     * Calculate the SHA256 Hash of the default graph of an open dataset.
+     *
+     * @param dataset The dataset, normally a TDB2 one.
+     * @param spillDirectory Directory for the temporary sort files, or null for java.io.tmpdir.
+     * @return The sha256 hexidecimal hash value.
+     * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
+     */
+    public static String calculate(final DatasetGraph dataset, final Path spillDirectory)
+            throws NoSuchAlgorithmException {
+        return calculate(dataset, spillDirectory, ExternalSortedStrings.DEFAULT_MAX_BUFFERED_CHARS);
+    }
+
+    /**
+     * Calculate the SHA256 Hash of the default graph of a TDB2 database.
+     *
+     * @param location The TDB2 database directory.
+     * @return The sha256 hexidecimal hash value.
+     * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
+     * @throws IllegalArgumentException If the location is not an existing TDB2 database.
+     */
+    public static String calculate(final String location) throws NoSuchAlgorithmException {
+        return calculate(location, null);
+    }
+
+    /**
+     * Calculate the SHA256 Hash of the default graph of a TDB2 database.
+     *
+     * @param location The TDB2 database directory.
+     * @param spillDirectory Directory for the temporary sort files, or null for java.io.tmpdir.
+     * @return The sha256 hexidecimal hash value.
+     * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
+     * @throws IllegalArgumentException If the location is not an existing TDB2 database.
+     */
+    public static String calculate(final String location, final Path spillDirectory)
+            throws NoSuchAlgorithmException {
+        return calculate(connect(location), spillDirectory);
+    }
+
+    /**
+     * Calculate the SHA256 Hash of the default graph of an open dataset.
+     *
+     * @param dataset The dataset.
+     * @param spillDirectory Directory for the temporary sort files, or null for java.io.tmpdir.
+     * @param maxBufferedChars Number of encoded characters held in memory before they are spilled to disk.
+     * @return The sha256 hexidecimal hash value.
+     * @throws NoSuchAlgorithmException If there is no SHA-256 algorithm.
+     */
+    static String calculate(final DatasetGraph dataset, final Path spillDirectory, final long maxBufferedChars)
+            throws NoSuchAlgorithmException {
+        try (final ExternalSortedStrings subjects = new ExternalSortedStrings(maxBufferedChars, spillDirectory)) {
+            encodeSubjects(dataset, subjects);
+            return RdfHash.digest(subjects);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calculate the string definition of the default graph of an open dataset. The whole string is returned, so
+     * unlike {@link #calculate(DatasetGraph)} this needs memory for all of it.
+     *
+     * @param dataset The dataset, normally a TDB2 one.
+     * @return The algorithm string.
+     */
+    public static String getGraphString(final DatasetGraph dataset) {
+        try (final ExternalSortedStrings subjects = new ExternalSortedStrings(
+                ExternalSortedStrings.DEFAULT_MAX_BUFFERED_CHARS, null)) {
+            encodeSubjects(dataset, subjects);
+            return RdfHash.joinSubjects(subjects);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calculate the string definition of the default graph of a TDB2 database. The whole string is returned, so
+     * unlike {@link #calculate(String)} this needs memory for all of it.
+     *
+     * @param location The TDB2 database directory.
+     * @return The algorithm string.
+     * @throws IllegalArgumentException If the location is not an existing TDB2 database.
+     */
+    public static String getGraphString(final String location) {
+        return getGraphString(connect(location));
+    }
+
+    /**
+     * Whether a location is an existing TDB2 database, a directory holding at least one Data-NNNN generation.
+     *
+     * @param location The directory.
+     * @return True if it holds a TDB2 database.
+     */
+    public static boolean isDatabase(final String location) {
+        final File[] generations = new File(location).listFiles(
+                f -> f.isDirectory() && f.getName().startsWith("Data-"));
+        return generations != null && generations.length > 0;
+    }
+
+    /**
+     * Connect to an existing TDB2 database, without creating one.
+     *
+     * @param location The TDB2 database directory.
+     * @return The shared connection for the location.
+     */
+    private static DatasetGraph connect(final String location) {
+        if (!isDatabase(location)) {
+            throw new IllegalArgumentException(location + " is not a TDB2 database");
+        }
+        return DatabaseMgr.connectDatasetGraph(location);
+    }
+
+    /**
+     * Encode every subject of the default graph in a read transaction.
+     *
+     * @param dataset The dataset.
+     * @param subjects Where to add the encoded subjects.
+     */
+    private static void encodeSubjects(final DatasetGraph dataset, final ExternalSortedStrings subjects) {
+        Txn.executeRead(dataset, () -> encodeSubjects(ModelFactory.createModelForGraph(dataset.getDefaultGraph()),
+                subjects));
+    }
+
+    /**
+     * Walk the graph in index order, encoding each subject when its run of triples starts.
+     *
+     * @param graph The graph.
+     * @param subjects Where to add the encoded subjects.
+     */
+    private static void encodeSubjects(final Model graph, final ExternalSortedStrings subjects) {
+        final StmtIterator statements = graph.listStatements();
+        try {
+            Resource current = null;
+            while (statements.hasNext()) {
+                final Resource subject = statements.next().getSubject();
+                if (!subject.equals(current)) {
+                    current = subject;
+                    subjects.add(RdfHash.encodeSubject(subject, graph));
+                }
+            }
+        } finally {
+            statements.close();
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class ExternalSortedStringsTest {
+
+    private final List<String> values = Arrays.asList("{b}", "a\nmultiline", "\"\u00e9\"@fr", "", "c",
+            "a\nmultiline", "b", "\"\u00e9\"@fr", "zz", "a", "c");
+
+    @Test
+    public void testInMemory() throws Exception {
+        try (final ExternalSortedStrings sorted = new ExternalSortedStrings(Long.MAX_VALUE, null)) {
+            values.forEach(sorted::add);
+            assertEquals(0, sorted.getRunCount());
+            assertEquals(expected(values), toList(sorted));
+        }
+    }
+
+    @Test
+    public void testSpilled() throws Exception {
+        try (final ExternalSortedStrings sorted = new ExternalSortedStrings(3, null)) {
+            values.forEach(sorted::add);
+            assertEquals(6, sorted.getRunCount());
+            assertEquals(expected(values), toList(sorted), "Merged runs do not match sorted distinct values");
+        }
+    }
+
+    @Test
+    public void testMultiPassMerge() throws Exception {
+        final List<String> many = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            many.add(Integer.toString((i * 7919) % 211, 36));
+        }
+        try (final ExternalSortedStrings sorted = new ExternalSortedStrings(2, null, 3)) {
+            many.forEach(sorted::add);
+            assertTrue(sorted.getRunCount() > 9, "Expected more runs than two merge passes");
+            assertEquals(expected(many), toList(sorted), "Merged runs do not match sorted distinct values");
+            assertTrue(sorted.getRunCount() <= 3, "Runs were not merged down to the fan in");
+        }
+    }
+
+    @Test
+    public void testSpillDirectory() throws Exception {
+        final Path spillDirectory = Files.createTempDirectory("rdf-hashing-test");
+        try {
+            try (final ExternalSortedStrings sorted = new ExternalSortedStrings(3, spillDirectory)) {
+                values.forEach(sorted::add);
+                assertEquals(sorted.getRunCount(), count(spillDirectory), "Runs are not in the spill directory");
+                assertEquals(expected(values), toList(sorted));
+            }
+            assertEquals(0, count(spillDirectory), "Runs were not deleted");
+        } finally {
+            Files.delete(spillDirectory);
+        }
+    }
+
+    /**
+     * @param strings the strings.
+     * @return the strings as a TreeSet orders them.
+     */
+    private List<String> expected(final List<String> strings) {
+        final Set<String> set = new TreeSet<>(strings);
+        return new ArrayList<>(set);
+    }
+
+    /**
+     * @param sorted the sorted strings.
+     * @return the strings in iteration order.
+     */
+    private List<String> toList(final ExternalSortedStrings sorted) {
+        final List<String> list = new ArrayList<>();
+        sorted.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * @param directory a directory.
+     * @return the number of files in it.
+     * @throws Exception on error listing the directory.
+     */
+    private long count(final Path directory) throws Exception {
+        try (final Stream<Path> paths = Files.list(directory)) {
+            return paths.count();
+        }
+    }
+}
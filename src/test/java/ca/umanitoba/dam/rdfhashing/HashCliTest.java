@@ -6,12 +6,18 @@ import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import org.apache.commons.codec.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.apache.jena.atlas.web.HttpException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -227,4 +233,147 @@ public class HashCliTest {
         assertEquals("You must provide both --username and --password, or neither\n", errContent.toString());
     }
 
+    @Test
+    public void testLoadTdb() throws Exception {
+        final Path database = createDatabase();
+        try {
+            final String[] testArgs = new String[] {
+                "--source",
+                database.toString(),
+                "--tdb"
+            };
+            HashCli.main(testArgs);
+            assertEquals(simpleFileHash, outContent.toString(), "Did not get hash");
+        } finally {
+            TdbFixture.delete(database);
+        }
+    }
+
+    @Test
+    public void testLoadTdbDebug() throws Exception {
+        final Path database = createDatabase();
+        try {
+            final String[] testArgs = new String[] {
+                "--source",
+                database.toString(),
+                "--tdb",
+                "--debug"
+            };
+            HashCli.main(testArgs);
+            assertEquals(simpleFileGraph + simpleFileHash, outContent.toString(), "Did not get hash");
+        } finally {
+            TdbFixture.delete(database);
+        }
+    }
+
+    @Test
+    public void testTdbNotDirectory() throws Exception {
+        final String[] testArgs = new String[] {
+            "--source",
+            simpleFile,
+            "--tdb"
+        };
+        HashCli.main(testArgs);
+        assertEquals("Source is not a TDB2 database\n", errContent.toString());
+    }
+
+    @Test
+    public void testTdbNotDatabase() throws Exception {
+        final Path directory = Files.createTempDirectory("rdf-hashing-cli");
+        try {
+            final String[] testArgs = new String[] {
+                "--source",
+                directory.toString(),
+                "--tdb"
+            };
+            HashCli.main(testArgs);
+            assertEquals("Source is not a TDB2 database\n", errContent.toString());
+            try (final Stream<Path> paths = Files.list(directory)) {
+                assertEquals(0, paths.count(), "Files were created in a non-database directory");
+            }
+        } finally {
+            TdbFixture.delete(directory);
+        }
+    }
+
+    @Test
+    public void testTdbWithCredentials() throws Exception {
+        final String[] testArgs = new String[] {
+            "--source",
+            simpleFile,
+            "--tdb",
+            "--username",
+            "testuser",
+            "--password",
+            "testpassword"
+        };
+        HashCli.main(testArgs);
+        assertEquals("--username and --password can not be used with --tdb\n", errContent.toString());
+    }
+
+    @Test
+    public void testLoadTdbSpillDir() throws Exception {
+        final Path database = createDatabase();
+        final Path spillDirectory = Files.createTempDirectory("rdf-hashing-cli");
+        try {
+            final String[] testArgs = new String[] {
+                "--source",
+                database.toString(),
+                "--tdb",
+                "--spill-dir",
+                spillDirectory.toString()
+            };
+            HashCli.main(testArgs);
+            assertEquals(simpleFileHash, outContent.toString(), "Did not get hash");
+            try (final Stream<Path> paths = Files.list(spillDirectory)) {
+                assertEquals(0, paths.count(), "Spill files were left behind");
+            }
+        } finally {
+            TdbFixture.delete(database);
+            TdbFixture.delete(spillDirectory);
+        }
+    }
+
+    @Test
+    public void testTdbSpillDirMissing() throws Exception {
+        final Path database = createDatabase();
+        try {
+            final String[] testArgs = new String[] {
+                "--source",
+                database.toString(),
+                "--tdb",
+                "--spill-dir",
+                database.resolve("missing").toString()
+            };
+            HashCli.main(testArgs);
+            assertEquals("Spill directory does not exist\n", errContent.toString());
+        } finally {
+            TdbFixture.delete(database);
+        }
+    }
+
+    @Test
+    public void testSpillDirWithoutTdb() throws Exception {
+        final String[] testArgs = new String[] {
+            "--source",
+            simpleFile,
+            "--spill-dir",
+            "/tmp"
+        };
+        HashCli.main(testArgs);
+        assertEquals("--spill-dir can only be used with --tdb\n", errContent.toString());
+    }
+
+    /**
+     * Load the simple file into a new TDB2 database.
+     *
+     * @return the database directory.
+     * @throws IOException on error creating the database.
+     */
+    private Path createDatabase() throws IOException {
+        final Model graph = ModelFactory.createDefaultModel();
+        graph.read(simpleFileUrl.toExternalForm());
+        return TdbFixture.createDatabase(graph);
+    }
+
 }
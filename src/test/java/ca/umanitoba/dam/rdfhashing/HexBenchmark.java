@@ -0,0 +1,55 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.function.Function;
+
+/**
+ * Compare {@link Hex#encode(byte[])} with the {@code String.format} encoding it replaced. Run with
+ * {@code ./gradlew benchmark}.
+ */
+public class HexBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static final int ITERATIONS = 1_000_000;
+
+    /**
+     * The benchmark.
+     *
+     * @param args ignored.
+     * @throws Exception If there is no SHA-256 algorithm.
+     */
+    public static void main(final String[] args) throws Exception {
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest("rdf-hashing".getBytes(UTF_8));
+        System.out.println("Java " + System.getProperty("java.version") + ", " + ITERATIONS + " encodings per round");
+        for (int round = 1; round <= ROUNDS; round++) {
+            final long format = time(d -> String.format("%064x", new BigInteger(1, d)), digest);
+            final long hex = time(Hex::encode, digest);
+            System.out.println(String.format("round %d: String.format %d ns/op, Hex.encode %d ns/op", round, format,
+                    hex));
+        }
+    }
+
+    /**
+     * Time an encoding.
+     *
+     * @param encoder the encoding.
+     * @param digest the bytes to encode.
+     * @return the mean nanoseconds per encoding.
+     */
+    private static long time(final Function<byte[], String> encoder, final byte[] digest) {
+        long length = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            length += encoder.apply(digest).length();
+        }
+        final long elapsed = System.nanoTime() - start;
+        if (length != 64L * ITERATIONS) {
+            throw new IllegalStateException("Unexpected encoding length");
+        }
+        return elapsed / ITERATIONS;
+    }
+}
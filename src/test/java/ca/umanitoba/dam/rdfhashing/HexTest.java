@@ -0,0 +1,30 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+
+import org.junit.jupiter.api.Test;
+
+public class HexTest {
+
+    @Test
+    public void testEmpty() {
+        assertEquals("", Hex.encode(new byte[0]));
+    }
+
+    @Test
+    public void testLeadingZerosAndSignBit() {
+        final byte[] bytes = new byte[] { 0x00, 0x01, 0x0a, 0x7f, (byte) 0x80, (byte) 0xff };
+        assertEquals("00010a7f80ff", Hex.encode(bytes));
+    }
+
+    @Test
+    public void testMatchesFormattedDigest() throws Exception {
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest("rdf-hashing".getBytes(UTF_8));
+        assertEquals(String.format("%064x", new BigInteger(1, digest)), Hex.encode(digest),
+                "Hex does not match formatted digest");
+    }
+}
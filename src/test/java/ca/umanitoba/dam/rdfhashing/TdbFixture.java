@@ -0,0 +1,56 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+/**
+ * Temporary TDB2 databases for tests.
+ */
+final class TdbFixture {
+
+    private TdbFixture() {
+    }
+
+    /**
+     * Load a graph into a new TDB2 database in a temporary directory and release it.
+     *
+     * @param graph the graph.
+     * @return the database directory.
+     * @throws IOException on error creating the directory.
+     */
+    static Path createDatabase(final Model graph) throws IOException {
+        final Path location = Files.createTempDirectory("rdf-hashing-tdb2");
+        final DatasetGraph dataset = DatabaseMgr.connectDatasetGraph(location.toString());
+        try {
+            Txn.executeWrite(dataset, () -> graph.getGraph().find().forEachRemaining(dataset.getDefaultGraph()::add));
+        } finally {
+            TDBInternal.expel(dataset);
+        }
+        return location;
+    }
+
+    /**
+     * Release any connection to a directory and delete it.
+     *
+     * @param directory the directory.
+     * @throws IOException on error walking the directory.
+     */
+    static void delete(final Path directory) throws IOException {
+        if (TdbRdfHash.isDatabase(directory.toString())) {
+            TDBInternal.expel(DatabaseMgr.connectDatasetGraph(directory.toString()));
+        }
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
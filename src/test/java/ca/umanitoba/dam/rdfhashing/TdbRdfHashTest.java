@@ -0,0 +1,156 @@
+package ca.umanitoba.dam.rdfhashing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.apache.jena.util.FileUtils.langTurtle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TdbRdfHashTest {
+
+    private final List<Path> directories = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        for (final Path directory : directories) {
+            TdbFixture.delete(directory);
+        }
+    }
+
+    @Test
+    public void testSuperSimple() throws Exception {
+        doTest("supersimple.ttl", "http://example.org/test1");
+    }
+
+    @Test
+    public void testBaseGraph() throws Exception {
+        doTest("base_graph.ttl", "http://example.org/test2");
+    }
+
+    @Test
+    public void testDoap() throws Exception {
+        doTest("doap.ttl", "http://example.org/test3/ttl");
+    }
+
+    @Test
+    public void testLanguageTags() throws Exception {
+        doTest("language_tags1.ttl", "http://example.org/test4/ttl1");
+    }
+
+    @Test
+    public void testOpenDataset() throws Exception {
+        final Model memoryGraph = getFromFile("doap.ttl", "http://example.org/test3/ttl");
+        final DatasetGraph dataset = DatabaseMgr.connectDatasetGraph(createDatabase(memoryGraph).toString());
+        assertEquals(RdfHash.getGraphString(memoryGraph), TdbRdfHash.getGraphString(dataset),
+                "Graph String does not match in memory graph");
+        assertEquals(RdfHash.calculate(memoryGraph), TdbRdfHash.calculate(dataset),
+                "Hash does not match in memory graph");
+        assertEquals((long) memoryGraph.size(), (long) Txn.calculateRead(dataset,
+                () -> dataset.getDefaultGraph().size()), "Dataset is no longer usable after hashing");
+    }
+
+    @Test
+    public void testSpilledRuns() throws Exception {
+        final Model memoryGraph = getFromFile("doap.ttl", "http://example.org/test3/ttl");
+        final DatasetGraph dataset = DatabaseMgr.connectDatasetGraph(createDatabase(memoryGraph).toString());
+        final Path spillDirectory = createDirectory();
+        assertEquals(RdfHash.calculate(memoryGraph), TdbRdfHash.calculate(dataset, spillDirectory, 1),
+                "Hash does not match in memory graph");
+        assertEmpty(spillDirectory, "Spill files were left behind");
+    }
+
+    @Test
+    public void testNotADatabase() throws Exception {
+        final Path directory = createDirectory();
+        assertFalse(TdbRdfHash.isDatabase(directory.toString()));
+        assertThrows(IllegalArgumentException.class, () -> TdbRdfHash.calculate(directory.toString()));
+        assertEmpty(directory, "Files were created in a non-database directory");
+    }
+
+    @Test
+    public void testMissingDirectory() throws Exception {
+        final Path missing = createDirectory().resolve("missing");
+        assertFalse(TdbRdfHash.isDatabase(missing.toString()));
+        assertThrows(IllegalArgumentException.class, () -> TdbRdfHash.calculate(missing.toString()));
+        assertFalse(Files.exists(missing), "Missing directory was created");
+    }
+
+    /**
+     * Test runner, compares the TDB2 graph string and hash to the in memory ones.
+     *
+     * @param source name of the source rdf file.
+     * @param baseUri baseUri of the source rdf.
+     * @throws Exception on error hashing the graph.
+     */
+    private void doTest(final String source, final String baseUri) throws Exception {
+        final Model memoryGraph = getFromFile(source, baseUri);
+        final String location = createDatabase(memoryGraph).toString();
+        assertEquals(RdfHash.getGraphString(memoryGraph), TdbRdfHash.getGraphString(location),
+                "Graph String does not match in memory graph");
+        assertEquals(RdfHash.calculate(memoryGraph), TdbRdfHash.calculate(location),
+                "Hash does not match in memory graph");
+    }
+
+    /**
+     * @param graph the graph.
+     * @return a new database holding the graph, deleted after the test.
+     * @throws IOException on error creating the database.
+     */
+    private Path createDatabase(final Model graph) throws IOException {
+        final Path location = TdbFixture.createDatabase(graph);
+        directories.add(location);
+        return location;
+    }
+
+    /**
+     * @return a new empty directory, deleted after the test.
+     * @throws IOException on error creating the directory.
+     */
+    private Path createDirectory() throws IOException {
+        final Path directory = Files.createTempDirectory("rdf-hashing-test");
+        directories.add(directory);
+        return directory;
+    }
+
+    /**
+     * Assert a directory is empty.
+     *
+     * @param directory the directory.
+     * @param message the failure message.
+     * @throws IOException on error listing the directory.
+     */
+    private void assertEmpty(final Path directory, final String message) throws IOException {
+        try (final Stream<Path> paths = Files.list(directory)) {
+            assertEquals(0, paths.count(), message);
+        }
+    }
+
+    /**
+     * Load Jena model from a file
+     *
+     * @param rdfFile the name of the source file.
+     * @param baseUri the base uri of the rdf
+     * @return the Jena Model
+     */
+    private Model getFromFile(final String rdfFile, final String baseUri) {
+        final InputStream graphStream = this.getClass().getClassLoader().getResourceAsStream(rdfFile);
+        final Model graph = ModelFactory.createDefaultModel();
+        graph.read(graphStream, baseUri, langTurtle);
+        return graph;
+    }
+}